@@ -1,6 +1,8 @@
 package com.tananushka;
 
 import com.tananushka.exception.FundsErrorException;
+import com.tananushka.model.AccountMutation;
+import com.tananushka.model.PortfolioValuation;
 import com.tananushka.operations.AccountOperations;
 import com.tananushka.operations.CurrencyOperations;
 import lombok.extern.slf4j.Slf4j;
@@ -19,6 +21,7 @@ import java.util.Optional;
 import java.util.Random;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Flow;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.IntStream;
 
@@ -43,16 +46,47 @@ public class CurrencyExchangeApplication {
    @Bean
    public CommandLineRunner demo(CurrencyOperations currencyOps, AccountOperations accountOps) {
       return args -> {
+         subscribeToMutations(currencyOps);
          setupExchangeRates(currencyOps);
          createTestAccounts(currencyOps);
          performConcurrentExchanges(currencyOps);
          performSingleAccountConcurrentExchanges(currencyOps);
          performBulkOperations(currencyOps);
          demonstrateAccountOperations(accountOps);
+         demonstratePortfolioValuation(currencyOps);
          currencyOps.shutdown();
       };
    }
 
+   private void subscribeToMutations(CurrencyOperations currencyOps) {
+      currencyOps.getMutationPublisher().subscribe(new Flow.Subscriber<List<AccountMutation>>() {
+         private Flow.Subscription subscription;
+
+         @Override
+         public void onSubscribe(Flow.Subscription subscription) {
+            this.subscription = subscription;
+            subscription.request(1);
+         }
+
+         @Override
+         public void onNext(List<AccountMutation> mutations) {
+            log.info("Received {} account mutations up to sequence {}",
+                  mutations.size(), mutations.get(mutations.size() - 1).getSequence());
+            subscription.request(1);
+         }
+
+         @Override
+         public void onError(Throwable throwable) {
+            log.error("Account mutation stream failed: {}", throwable.getMessage());
+         }
+
+         @Override
+         public void onComplete() {
+            log.info("Account mutation stream completed");
+         }
+      });
+   }
+
    private void setupExchangeRates(CurrencyOperations currencyOps) {
       log.info("Setting up exchange rates...");
 
@@ -226,4 +260,25 @@ public class CurrencyExchangeApplication {
 
       log.info("Account operations demonstration completed");
    }
+
+   private void demonstratePortfolioValuation(CurrencyOperations currencyOps) throws IOException {
+      log.info("Demonstrating portfolio valuation...");
+
+      PortfolioValuation valuation = currencyOps.valuePortfolio("USD");
+      valuation.getAccountValues().forEach((accountId, value) ->
+            log.info("{} value: {} {}", accountId, value, valuation.getBaseCurrency()));
+      log.info("Total portfolio value: {} {}", valuation.getTotalValue(), valuation.getBaseCurrency());
+
+      try {
+         currencyOps.getAccountService().exchange(String.format(ACCOUNT, 1), "USD", "EUR", new BigDecimal("10"));
+      } catch (FundsErrorException e) {
+         log.error("Insufficient funds: {}", e.getMessage());
+      }
+
+      PortfolioValuation revaluation = currencyOps.revaluePortfolio("USD");
+      log.info("Revalued {} accounts, total portfolio value: {} {}",
+            revaluation.getRevaluedAccounts(), revaluation.getTotalValue(), revaluation.getBaseCurrency());
+
+      log.info("Portfolio valuation demonstration completed");
+   }
 }
\ No newline at end of file
@@ -2,6 +2,7 @@ package com.tananushka.dao;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.tananushka.model.Account;
+import com.tananushka.model.AccountVersion;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Repository;
 
@@ -9,16 +10,23 @@ import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.List;
 import java.util.Optional;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
 
 @Slf4j
 @Repository
 public class AccountDao {
    private static final String ACCOUNTS_DIR = "accounts/";
+   private static final String ACCOUNT_FILE_EXTENSION = ".json";
    private final ObjectMapper objectMapper;
    private final ConcurrentHashMap<String, ReentrantReadWriteLock> fileLocks = new ConcurrentHashMap<>();
+   private final ConcurrentHashMap<String, Long> accountVersions = new ConcurrentHashMap<>();
+   private final AtomicLong writeSequence = new AtomicLong();
 
    public AccountDao(ObjectMapper objectMapper) throws IOException {
       this.objectMapper = objectMapper;
@@ -35,8 +43,9 @@ public class AccountDao {
       );
       lock.writeLock().lock();
       try {
-         Path filePath = Paths.get(ACCOUNTS_DIR + account.getId() + ".json");
+         Path filePath = Paths.get(ACCOUNTS_DIR + account.getId() + ACCOUNT_FILE_EXTENSION);
          objectMapper.writeValue(filePath.toFile(), account);
+         accountVersions.put(account.getId(), writeSequence.incrementAndGet());
          log.info("Account saved: {} at path: {}", account.getId(), filePath);
       } finally {
          lock.writeLock().unlock();
@@ -49,7 +58,7 @@ public class AccountDao {
       );
       lock.readLock().lock();
       try {
-         Path filePath = Paths.get(ACCOUNTS_DIR + accountId + ".json");
+         Path filePath = Paths.get(ACCOUNTS_DIR + accountId + ACCOUNT_FILE_EXTENSION);
          if (!Files.exists(filePath)) {
             log.warn("Account file not found: {}", filePath);
             return Optional.empty();
@@ -61,4 +70,34 @@ public class AccountDao {
          lock.readLock().unlock();
       }
    }
+
+   public List<String> getAccountIds() throws IOException {
+      try (Stream<Path> files = Files.list(Paths.get(ACCOUNTS_DIR))) {
+         return files
+               .map(path -> path.getFileName().toString())
+               .filter(fileName -> fileName.endsWith(ACCOUNT_FILE_EXTENSION))
+               .map(fileName -> fileName.substring(0, fileName.length() - ACCOUNT_FILE_EXTENSION.length()))
+               .sorted()
+               .toList();
+      }
+   }
+
+   public Optional<AccountVersion> getVersion(String accountId) throws IOException {
+      ReentrantReadWriteLock lock = fileLocks.computeIfAbsent(
+            accountId, k -> new ReentrantReadWriteLock()
+      );
+      lock.readLock().lock();
+      try {
+         Path filePath = Paths.get(ACCOUNTS_DIR + accountId + ACCOUNT_FILE_EXTENSION);
+         if (!Files.exists(filePath)) {
+            return Optional.empty();
+         }
+
+         BasicFileAttributes attributes = Files.readAttributes(filePath, BasicFileAttributes.class);
+         return Optional.of(new AccountVersion(accountVersions.getOrDefault(accountId, 0L),
+               attributes.lastModifiedTime(), attributes.size()));
+      } finally {
+         lock.readLock().unlock();
+      }
+   }
 }
\ No newline at end of file
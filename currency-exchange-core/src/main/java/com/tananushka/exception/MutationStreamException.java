@@ -0,0 +1,12 @@
+package com.tananushka.exception;
+
+import java.io.Serial;
+
+public class MutationStreamException extends RuntimeException {
+   @Serial
+   private static final long serialVersionUID = 1L;
+
+   public MutationStreamException(String message) {
+      super(message);
+   }
+}
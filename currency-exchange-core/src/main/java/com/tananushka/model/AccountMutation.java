@@ -0,0 +1,18 @@
+package com.tananushka.model;
+
+import lombok.Data;
+
+import java.time.Instant;
+
+@Data
+public class AccountMutation {
+   private final String epoch;
+   private final long sequence;
+   private final MutationType type;
+   private final String accountId;
+   private final String counterpartyAccountId;
+   private final String correlationId;
+   private final AccountState before;
+   private final AccountState after;
+   private final Instant committedAt;
+}
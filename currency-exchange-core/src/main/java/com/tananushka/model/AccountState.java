@@ -0,0 +1,20 @@
+package com.tananushka.model;
+
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+@Data
+public class AccountState {
+   private final AccountStatus status;
+   private final Map<String, BigDecimal> balances;
+
+   public static AccountState of(Account account) {
+      Map<String, BigDecimal> balances = new HashMap<>();
+      account.getCurrencies().forEach((code, currency) -> balances.put(code, currency.getAmount()));
+      return new AccountState(account.getStatus(), Collections.unmodifiableMap(balances));
+   }
+}
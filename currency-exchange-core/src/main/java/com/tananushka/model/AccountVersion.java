@@ -0,0 +1,12 @@
+package com.tananushka.model;
+
+import lombok.Data;
+
+import java.nio.file.attribute.FileTime;
+
+@Data
+public class AccountVersion {
+   private final long writeSequence;
+   private final FileTime lastModified;
+   private final long size;
+}
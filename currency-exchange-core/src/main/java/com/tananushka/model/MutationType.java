@@ -0,0 +1,8 @@
+package com.tananushka.model;
+
+public enum MutationType {
+   CREATE,
+   EXCHANGE,
+   TRANSFER,
+   STATUS_CHANGE
+}
@@ -0,0 +1,14 @@
+package com.tananushka.model;
+
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.util.Map;
+
+@Data
+public class PortfolioValuation {
+   private final String baseCurrency;
+   private final Map<String, BigDecimal> accountValues;
+   private final BigDecimal totalValue;
+   private final int revaluedAccounts;
+}
@@ -0,0 +1,297 @@
+package com.tananushka.service;
+
+import com.tananushka.exception.MutationStreamException;
+import com.tananushka.model.AccountMutation;
+import com.tananushka.model.AccountState;
+import com.tananushka.model.MutationType;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Flow;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Publishes committed account mutations as a {@link Flow} stream of batches.
+ * <p>
+ * Every mutation gets the next sequence number and is kept in a fixed-size journal. Each subscriber has a
+ * cursor into that journal, so its buffer holds at most {@link #BUFFER_CAPACITY} undelivered mutations.
+ * Demand is counted in batches of up to {@link #BATCH_SIZE} mutations. Both halves of a transfer share a
+ * correlation id, get adjacent sequence numbers and are delivered in the same batch. Writers never block:
+ * a subscriber that falls further behind than its buffer allows is failed with
+ * {@link MutationStreamException} and can resubscribe from the sequence after the last one it received.
+ * <p>
+ * Sequence numbers are held in memory and restart on every start of the process, so each publisher
+ * instance has its own random epoch. Resuming only works with the epoch of this instance and only for the
+ * last {@link #BUFFER_CAPACITY} mutations. After {@link #shutdown()} no further mutations are accepted, and
+ * each subscriber is completed once it has received every mutation published before the shutdown.
+ */
+@Slf4j
+@Service
+public class AccountMutationPublisher implements Flow.Publisher<List<AccountMutation>> {
+   private static final int BATCH_SIZE = 16;
+   private static final int BUFFER_CAPACITY = 1024;
+
+   @Getter
+   private final String epoch = UUID.randomUUID().toString();
+   private final AccountMutation[] journal = new AccountMutation[BUFFER_CAPACITY];
+   private final List<MutationSubscription> subscriptions = new CopyOnWriteArrayList<>();
+   private final ExecutorService executorService = Executors.newFixedThreadPool(2, runnable -> {
+      Thread thread = new Thread(runnable, "mutation-publisher");
+      thread.setDaemon(true);
+      return thread;
+   });
+   private long nextSequence = 1;
+   private boolean shutdown;
+   private long completionSequence;
+
+   public synchronized void publish(MutationType type, String accountId, AccountState before, AccountState after) {
+      if (isRejectedAfterShutdown(type, accountId)) {
+         return;
+      }
+      append(type, accountId, null, null, before, after);
+      notifySubscribers();
+   }
+
+   public synchronized void publishTransfer(String fromAccountId, AccountState fromBefore, AccountState fromAfter,
+                                            String toAccountId, AccountState toBefore, AccountState toAfter) {
+      if (isRejectedAfterShutdown(MutationType.TRANSFER, fromAccountId)) {
+         return;
+      }
+      String correlationId = UUID.randomUUID().toString();
+      append(MutationType.TRANSFER, fromAccountId, toAccountId, correlationId, fromBefore, fromAfter);
+      append(MutationType.TRANSFER, toAccountId, fromAccountId, correlationId, toBefore, toAfter);
+      notifySubscribers();
+   }
+
+   @Override
+   public void subscribe(Flow.Subscriber<? super List<AccountMutation>> subscriber) {
+      Objects.requireNonNull(subscriber, "subscriber");
+      register(subscriber, currentSequence() + 1);
+   }
+
+   public void subscribe(Flow.Subscriber<? super List<AccountMutation>> subscriber, String epoch,
+                         long fromSequence) {
+      Objects.requireNonNull(subscriber, "subscriber");
+      if (!this.epoch.equals(epoch)) {
+         reject(subscriber, new MutationStreamException(
+               String.format("Cannot resume from epoch %s, current epoch is %s", epoch, this.epoch)
+         ));
+         return;
+      }
+      register(subscriber, fromSequence);
+   }
+
+   public synchronized long currentSequence() {
+      return nextSequence - 1;
+   }
+
+   public synchronized void shutdown() {
+      shutdown = true;
+      completionSequence = nextSequence;
+      if (subscriptions.isEmpty()) {
+         executorService.shutdown();
+      }
+      subscriptions.forEach(MutationSubscription::signal);
+   }
+
+   private void register(Flow.Subscriber<? super List<AccountMutation>> subscriber, long fromSequence) {
+      MutationSubscription subscription = new MutationSubscription(subscriber, fromSequence);
+      MutationStreamException rejection = null;
+
+      synchronized (this) {
+         if (shutdown) {
+            rejection = new MutationStreamException("Mutation publisher is shut down");
+         } else if (fromSequence < oldestRetainedSequence() || fromSequence > nextSequence) {
+            rejection = new MutationStreamException(
+                  String.format("Cannot resume from sequence %d, available range is %d-%d",
+                        fromSequence, oldestRetainedSequence(), nextSequence)
+            );
+         } else {
+            subscriptions.add(subscription);
+         }
+      }
+
+      if (rejection != null) {
+         reject(subscriber, rejection);
+         return;
+      }
+
+      subscriber.onSubscribe(subscription);
+      subscription.start();
+      log.info("Subscriber registered from sequence {} of epoch {}", fromSequence, epoch);
+   }
+
+   private void reject(Flow.Subscriber<? super List<AccountMutation>> subscriber, MutationStreamException rejection) {
+      MutationSubscription subscription = new MutationSubscription(subscriber, 0);
+      subscription.cancelled = true;
+      subscriber.onSubscribe(subscription);
+      subscriber.onError(rejection);
+   }
+
+   private boolean isRejectedAfterShutdown(MutationType type, String accountId) {
+      if (shutdown) {
+         log.warn("Mutation publisher is shut down, {} mutation for account {} is not published", type, accountId);
+      }
+      return shutdown;
+   }
+
+   private void append(MutationType type, String accountId, String counterpartyAccountId, String correlationId,
+                       AccountState before, AccountState after) {
+      AccountMutation mutation = new AccountMutation(epoch, nextSequence, type, accountId, counterpartyAccountId,
+            correlationId, before, after, Instant.now());
+      journal[(int) (nextSequence % BUFFER_CAPACITY)] = mutation;
+      nextSequence++;
+      log.debug("Published {} mutation {} for account {}", type, mutation.getSequence(), accountId);
+   }
+
+   private void notifySubscribers() {
+      for (MutationSubscription subscription : subscriptions) {
+         if (subscription.error == null && nextSequence - subscription.cursor > BUFFER_CAPACITY) {
+            subscription.fail(new MutationStreamException(
+                  String.format("Subscriber buffer overflow at sequence %d", nextSequence - 1)
+            ));
+         } else {
+            subscription.signal();
+         }
+      }
+   }
+
+   private synchronized List<AccountMutation> readBatch(long fromSequence) {
+      if (fromSequence < oldestRetainedSequence()) {
+         throw new MutationStreamException("Mutations from sequence " + fromSequence + " are no longer retained");
+      }
+
+      List<AccountMutation> batch = new ArrayList<>();
+      long sequence = fromSequence;
+      for (; sequence < nextSequence && batch.size() < BATCH_SIZE; sequence++) {
+         batch.add(journal[(int) (sequence % BUFFER_CAPACITY)]);
+      }
+      if (!batch.isEmpty() && sequence < nextSequence) {
+         String lastCorrelationId = batch.get(batch.size() - 1).getCorrelationId();
+         AccountMutation next = journal[(int) (sequence % BUFFER_CAPACITY)];
+         if (lastCorrelationId != null && lastCorrelationId.equals(next.getCorrelationId())) {
+            batch.add(next);
+         }
+      }
+      return batch;
+   }
+
+   private long oldestRetainedSequence() {
+      return Math.max(1, nextSequence - BUFFER_CAPACITY);
+   }
+
+   private synchronized boolean isCompletedAt(long cursor) {
+      return shutdown && cursor >= completionSequence;
+   }
+
+   private synchronized void unregister(MutationSubscription subscription) {
+      subscriptions.remove(subscription);
+      if (shutdown && subscriptions.isEmpty()) {
+         executorService.shutdown();
+      }
+   }
+
+   private class MutationSubscription implements Flow.Subscription {
+      private final Flow.Subscriber<? super List<AccountMutation>> subscriber;
+      private final AtomicLong demand = new AtomicLong();
+      private final AtomicInteger pendingSignals = new AtomicInteger(1);
+      private volatile long cursor;
+      private volatile boolean cancelled;
+      private volatile Throwable error;
+
+      private MutationSubscription(Flow.Subscriber<? super List<AccountMutation>> subscriber, long cursor) {
+         this.subscriber = subscriber;
+         this.cursor = cursor;
+      }
+
+      @Override
+      public void request(long n) {
+         if (n <= 0) {
+            fail(new IllegalArgumentException("Requested batch count must be positive: " + n));
+            return;
+         }
+         demand.getAndAccumulate(n, (current, requested) ->
+               current + requested < 0 ? Long.MAX_VALUE : current + requested);
+         signal();
+      }
+
+      @Override
+      public void cancel() {
+         cancelled = true;
+         unregister(this);
+      }
+
+      private void fail(Throwable throwable) {
+         if (error == null) {
+            error = throwable;
+         }
+         signal();
+      }
+
+      private void start() {
+         schedule();
+      }
+
+      private void signal() {
+         if (pendingSignals.getAndIncrement() == 0) {
+            schedule();
+         }
+      }
+
+      private void schedule() {
+         try {
+            executorService.execute(this::drain);
+         } catch (RejectedExecutionException e) {
+            log.warn("Mutation publisher is shut down, subscriber will not be notified");
+         }
+      }
+
+      private void drain() {
+         int missed = 1;
+         do {
+            try {
+               deliverBatches();
+            } catch (RuntimeException e) {
+               log.error("Mutation delivery failed: {}", e.getMessage());
+               error = e;
+            }
+
+            if (!cancelled && error != null) {
+               cancelled = true;
+               unregister(this);
+               subscriber.onError(error);
+            } else if (!cancelled && isCompletedAt(cursor)) {
+               cancelled = true;
+               unregister(this);
+               subscriber.onComplete();
+            }
+            missed = pendingSignals.addAndGet(-missed);
+         } while (missed != 0);
+      }
+
+      private void deliverBatches() {
+         while (!cancelled && error == null && demand.get() > 0) {
+            List<AccountMutation> batch = readBatch(cursor);
+            if (batch.isEmpty()) {
+               return;
+            }
+            cursor = batch.get(batch.size() - 1).getSequence() + 1;
+            if (demand.get() != Long.MAX_VALUE) {
+               demand.decrementAndGet();
+            }
+            subscriber.onNext(batch);
+         }
+      }
+   }
+}
@@ -5,8 +5,10 @@ import com.tananushka.exception.AccountErrorException;
 import com.tananushka.exception.AccountStatusException;
 import com.tananushka.exception.FundsErrorException;
 import com.tananushka.model.Account;
+import com.tananushka.model.AccountState;
 import com.tananushka.model.AccountStatus;
 import com.tananushka.model.Currency;
+import com.tananushka.model.MutationType;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
@@ -24,6 +26,7 @@ import java.util.concurrent.locks.ReentrantLock;
 public class AccountService {
    private final AccountDao accountDao;
    private final ExchangeRateService exchangeRateService;
+   private final AccountMutationPublisher mutationPublisher;
    private final ConcurrentHashMap<String, Lock> accountLocks = new ConcurrentHashMap<>();
 
    public void validateAccountActive(Account account) {
@@ -46,8 +49,10 @@ public class AccountService {
             throw new AccountStatusException("Account must be frozen before closing");
          }
 
+         AccountState before = AccountState.of(account);
          account.setStatus(status);
          accountDao.saveAccount(account);
+         mutationPublisher.publish(MutationType.STATUS_CHANGE, accountId, before, AccountState.of(account));
          log.info("Account {} status changed to {}", accountId, status);
       } finally {
          accountLock.unlock();
@@ -56,6 +61,7 @@ public class AccountService {
 
    public void createAccount(Account account) throws IOException {
       accountDao.saveAccount(account);
+      mutationPublisher.publish(MutationType.CREATE, account.getId(), null, AccountState.of(account));
       log.info("Created new account: {}", account.getId());
    }
 
@@ -77,6 +83,7 @@ public class AccountService {
          BigDecimal rate = exchangeRateService.getExchangeRate(fromCurrency, toCurrency);
          BigDecimal convertedAmount = amount.multiply(rate);
 
+         AccountState before = AccountState.of(account);
          sourceCurrency.setAmount(sourceCurrency.getAmount().subtract(amount));
          account.getCurrencies().compute(toCurrency, (k, v) -> {
             if (v == null) {
@@ -90,6 +97,7 @@ public class AccountService {
          });
 
          accountDao.saveAccount(account);
+         mutationPublisher.publish(MutationType.EXCHANGE, accountId, before, AccountState.of(account));
          log.info("Exchanged {} {} to {} {} for account {}",
                amount, fromCurrency, convertedAmount, toCurrency, accountId);
       } finally {
@@ -97,12 +105,61 @@ public class AccountService {
       }
    }
 
-   public Optional<Account> getAccount(String accountId) throws IOException {
-      return accountDao.getAccount(accountId);
+   public void transfer(String fromAccountId, String toAccountId, String currency,
+                        BigDecimal amount) throws IOException {
+      if (amount.signum() <= 0) {
+         throw new FundsErrorException("Transfer amount must be positive: " + amount);
+      }
+      if (fromAccountId.equals(toAccountId)) {
+         throw new AccountErrorException("Cannot transfer funds within the same account: " + fromAccountId);
+      }
+
+      Lock firstLock = accountLocks.computeIfAbsent(
+            fromAccountId.compareTo(toAccountId) < 0 ? fromAccountId : toAccountId, k -> new ReentrantLock());
+      Lock secondLock = accountLocks.computeIfAbsent(
+            fromAccountId.compareTo(toAccountId) < 0 ? toAccountId : fromAccountId, k -> new ReentrantLock());
+      firstLock.lock();
+      secondLock.lock();
+      try {
+         Account fromAccount = accountDao.getAccount(fromAccountId)
+               .orElseThrow(() -> new AccountErrorException("Account not found: " + fromAccountId));
+         Account toAccount = accountDao.getAccount(toAccountId)
+               .orElseThrow(() -> new AccountErrorException("Account not found: " + toAccountId));
+
+         validateAccountActive(fromAccount);
+         validateAccountActive(toAccount);
+
+         Currency sourceCurrency = fromAccount.getCurrencies().get(currency);
+         if (sourceCurrency == null || sourceCurrency.getAmount().compareTo(amount) < 0) {
+            throw new FundsErrorException("Insufficient funds for currency: " + currency);
+         }
+
+         AccountState fromBefore = AccountState.of(fromAccount);
+         AccountState toBefore = AccountState.of(toAccount);
+         sourceCurrency.setAmount(sourceCurrency.getAmount().subtract(amount));
+         toAccount.getCurrencies().compute(currency, (k, v) -> {
+            if (v == null) {
+               Currency newCurrency = new Currency();
+               newCurrency.setCode(currency);
+               newCurrency.setAmount(amount);
+               return newCurrency;
+            }
+            v.setAmount(v.getAmount().add(amount));
+            return v;
+         });
+
+         accountDao.saveAccount(fromAccount);
+         accountDao.saveAccount(toAccount);
+         mutationPublisher.publishTransfer(fromAccountId, fromBefore, AccountState.of(fromAccount),
+               toAccountId, toBefore, AccountState.of(toAccount));
+         log.info("Transferred {} {} from account {} to account {}", amount, currency, fromAccountId, toAccountId);
+      } finally {
+         secondLock.unlock();
+         firstLock.unlock();
+      }
    }
 
-   public void updateAccount(Account account) throws IOException {
-      accountDao.saveAccount(account);
-      log.info("Updated account: {}", account.getId());
+   public Optional<Account> getAccount(String accountId) throws IOException {
+      return accountDao.getAccount(accountId);
    }
 }
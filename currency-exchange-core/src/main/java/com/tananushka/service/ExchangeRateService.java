@@ -5,6 +5,7 @@ import com.tananushka.model.ExchangeRate;
 import org.springframework.stereotype.Service;
 
 import java.math.BigDecimal;
+import java.util.HashMap;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 
@@ -13,23 +14,35 @@ public class ExchangeRateService {
    private final Map<String, ExchangeRate> exchangeRates = new ConcurrentHashMap<>();
 
    public void addExchangeRate(ExchangeRate rate) {
-      String key = rate.getFromCurrency() + "-" + rate.getToCurrency();
+      String key = rateKey(rate.getFromCurrency(), rate.getToCurrency());
       exchangeRates.put(key, rate);
    }
 
    public BigDecimal getExchangeRate(String fromCurrency, String toCurrency) {
-      String key = fromCurrency + "-" + toCurrency;
-      ExchangeRate rate = exchangeRates.get(key);
+      ExchangeRate rate = exchangeRates.get(rateKey(fromCurrency, toCurrency));
       if (rate == null) {
-         throw new ExchangeErrorException(
-               String.format("Exchange rate not found for pair: %s-%s", fromCurrency, toCurrency)
-         );
+         throw rateNotFound(fromCurrency, toCurrency);
       }
       return rate.getRate();
    }
 
    public boolean hasExchangeRate(String fromCurrency, String toCurrency) {
-      String key = fromCurrency + "-" + toCurrency;
-      return exchangeRates.containsKey(key);
+      return exchangeRates.containsKey(rateKey(fromCurrency, toCurrency));
    }
-}
\ No newline at end of file
+
+   public ExchangeRateSnapshot getExchangeRateSnapshot() {
+      Map<String, BigDecimal> rates = new HashMap<>();
+      exchangeRates.forEach((key, rate) -> rates.put(key, rate.getRate()));
+      return new ExchangeRateSnapshot(rates);
+   }
+
+   static String rateKey(String fromCurrency, String toCurrency) {
+      return fromCurrency + "-" + toCurrency;
+   }
+
+   static ExchangeErrorException rateNotFound(String fromCurrency, String toCurrency) {
+      return new ExchangeErrorException(
+            String.format("Exchange rate not found for pair: %s-%s", fromCurrency, toCurrency)
+      );
+   }
+}
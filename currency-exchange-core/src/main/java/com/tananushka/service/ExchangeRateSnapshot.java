@@ -0,0 +1,26 @@
+package com.tananushka.service;
+
+import lombok.EqualsAndHashCode;
+
+import java.math.BigDecimal;
+import java.util.Map;
+
+/**
+ * Immutable copy of the registered exchange rates, taken by {@link ExchangeRateService#getExchangeRateSnapshot()}.
+ */
+@EqualsAndHashCode
+public final class ExchangeRateSnapshot {
+   private final Map<String, BigDecimal> rates;
+
+   ExchangeRateSnapshot(Map<String, BigDecimal> rates) {
+      this.rates = Map.copyOf(rates);
+   }
+
+   public BigDecimal rate(String fromCurrency, String toCurrency) {
+      BigDecimal rate = rates.get(ExchangeRateService.rateKey(fromCurrency, toCurrency));
+      if (rate == null) {
+         throw ExchangeRateService.rateNotFound(fromCurrency, toCurrency);
+      }
+      return rate;
+   }
+}
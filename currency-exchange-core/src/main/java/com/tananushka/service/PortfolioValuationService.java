@@ -0,0 +1,192 @@
+package com.tananushka.service;
+
+import com.tananushka.dao.AccountDao;
+import com.tananushka.model.Account;
+import com.tananushka.model.AccountVersion;
+import com.tananushka.model.PortfolioValuation;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.Serial;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Values every stored account in a single base currency.
+ * <p>
+ * Account files are read in parallel chunks on a fork-join pool, one account at a time per worker, so the
+ * whole store is never held in memory. All conversions of a run use the same exchange rate snapshot.
+ * The latest valuation per base currency is kept so that {@link #revaluePortfolio(String)} only has to
+ * re-read accounts whose {@link AccountDao#getVersion(String) version} changed since the previous run.
+ * Runs for the same base currency are serialized.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class PortfolioValuationService {
+   private static final int CHUNK_SIZE = 4;
+
+   private final AccountDao accountDao;
+   private final ExchangeRateService exchangeRateService;
+   private final ForkJoinPool forkJoinPool = new ForkJoinPool();
+   private final Map<String, ValuationState> valuationStates = new ConcurrentHashMap<>();
+   private final ConcurrentHashMap<String, Lock> valuationLocks = new ConcurrentHashMap<>();
+
+   public PortfolioValuation valuePortfolio(String baseCurrency) throws IOException {
+      Lock valuationLock = valuationLocks.computeIfAbsent(baseCurrency, k -> new ReentrantLock());
+      valuationLock.lock();
+      try {
+         return valueFully(baseCurrency, exchangeRateService.getExchangeRateSnapshot());
+      } finally {
+         valuationLock.unlock();
+      }
+   }
+
+   public PortfolioValuation revaluePortfolio(String baseCurrency) throws IOException {
+      Lock valuationLock = valuationLocks.computeIfAbsent(baseCurrency, k -> new ReentrantLock());
+      valuationLock.lock();
+      try {
+         ExchangeRateSnapshot rates = exchangeRateService.getExchangeRateSnapshot();
+         ValuationState state = valuationStates.get(baseCurrency);
+         if (state == null || !state.rates.equals(rates)) {
+            log.info("No reusable valuation in {}, performing full valuation", baseCurrency);
+            return valueFully(baseCurrency, rates);
+         }
+
+         PortfolioValuation valuation = value(baseCurrency, state);
+         log.info("Revalued {} of {} accounts in {}: total {}", valuation.getRevaluedAccounts(),
+               valuation.getAccountValues().size(), baseCurrency, valuation.getTotalValue());
+         return valuation;
+      } finally {
+         valuationLock.unlock();
+      }
+   }
+
+   public void shutdown() {
+      forkJoinPool.shutdown();
+   }
+
+   private PortfolioValuation valueFully(String baseCurrency, ExchangeRateSnapshot rates) throws IOException {
+      ValuationState state = new ValuationState(rates);
+      PortfolioValuation valuation = value(baseCurrency, state);
+      valuationStates.put(baseCurrency, state);
+
+      log.info("Valued {} accounts in {}: total {}",
+            valuation.getRevaluedAccounts(), baseCurrency, valuation.getTotalValue());
+      return valuation;
+   }
+
+   private PortfolioValuation value(String baseCurrency, ValuationState state) throws IOException {
+      List<String> accountIds = accountDao.getAccountIds();
+      Set<String> existingAccountIds = new HashSet<>(accountIds);
+      state.accountValues.keySet().retainAll(existingAccountIds);
+      state.accountVersions.keySet().retainAll(existingAccountIds);
+
+      AtomicInteger revaluedAccounts = new AtomicInteger();
+      BigDecimal totalValue;
+      try {
+         totalValue = forkJoinPool.invoke(new ValuationTask(accountIds, baseCurrency, state, revaluedAccounts));
+      } catch (UncheckedIOException e) {
+         throw e.getCause();
+      }
+
+      return new PortfolioValuation(baseCurrency, new TreeMap<>(state.accountValues), totalValue,
+            revaluedAccounts.get());
+   }
+
+   private static BigDecimal convert(BigDecimal amount, String fromCurrency, String toCurrency,
+                                     ExchangeRateSnapshot rates) {
+      if (fromCurrency.equals(toCurrency)) {
+         return amount;
+      }
+      return amount.multiply(rates.rate(fromCurrency, toCurrency));
+   }
+
+   private static class ValuationState {
+      private final ExchangeRateSnapshot rates;
+      private final Map<String, BigDecimal> accountValues = new ConcurrentHashMap<>();
+      private final Map<String, AccountVersion> accountVersions = new ConcurrentHashMap<>();
+
+      private ValuationState(ExchangeRateSnapshot rates) {
+         this.rates = rates;
+      }
+   }
+
+   private class ValuationTask extends RecursiveTask<BigDecimal> {
+      @Serial
+      private static final long serialVersionUID = 1L;
+
+      private final List<String> accountIds;
+      private final String baseCurrency;
+      private final ValuationState state;
+      private final AtomicInteger revaluedAccounts;
+
+      private ValuationTask(List<String> accountIds, String baseCurrency, ValuationState state,
+                            AtomicInteger revaluedAccounts) {
+         this.accountIds = accountIds;
+         this.baseCurrency = baseCurrency;
+         this.state = state;
+         this.revaluedAccounts = revaluedAccounts;
+      }
+
+      @Override
+      protected BigDecimal compute() {
+         if (accountIds.size() <= CHUNK_SIZE) {
+            return accountIds.stream()
+                  .map(this::valueAccount)
+                  .reduce(BigDecimal.ZERO, BigDecimal::add);
+         }
+
+         int middle = accountIds.size() / 2;
+         ValuationTask left = new ValuationTask(accountIds.subList(0, middle), baseCurrency, state,
+               revaluedAccounts);
+         ValuationTask right = new ValuationTask(accountIds.subList(middle, accountIds.size()), baseCurrency, state,
+               revaluedAccounts);
+         left.fork();
+         return right.compute().add(left.join());
+      }
+
+      private BigDecimal valueAccount(String accountId) {
+         try {
+            Optional<AccountVersion> version = accountDao.getVersion(accountId);
+            BigDecimal previousValue = state.accountValues.get(accountId);
+            if (previousValue != null && version.isPresent()
+                  && version.get().equals(state.accountVersions.get(accountId))) {
+               return previousValue;
+            }
+
+            Optional<Account> account = accountDao.getAccount(accountId);
+            if (version.isEmpty() || account.isEmpty()) {
+               state.accountValues.remove(accountId);
+               state.accountVersions.remove(accountId);
+               return BigDecimal.ZERO;
+            }
+
+            BigDecimal value = account.get().getCurrencies().values().stream()
+                  .map(currency -> convert(currency.getAmount(), currency.getCode(), baseCurrency, state.rates))
+                  .reduce(BigDecimal.ZERO, BigDecimal::add);
+
+            state.accountValues.put(accountId, value);
+            state.accountVersions.put(accountId, version.get());
+            revaluedAccounts.incrementAndGet();
+            return value;
+         } catch (IOException e) {
+            throw new UncheckedIOException(e);
+         }
+      }
+   }
+}
@@ -4,8 +4,11 @@ import com.tananushka.exception.FundsErrorException;
 import com.tananushka.model.Account;
 import com.tananushka.model.Currency;
 import com.tananushka.model.ExchangeRate;
+import com.tananushka.model.PortfolioValuation;
+import com.tananushka.service.AccountMutationPublisher;
 import com.tananushka.service.AccountService;
 import com.tananushka.service.ExchangeRateService;
+import com.tananushka.service.PortfolioValuationService;
 import lombok.Getter;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -18,14 +21,20 @@ import java.util.Map;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 
 @Slf4j
 @Component
 @RequiredArgsConstructor
 public class CurrencyOperations {
+   private static final long SHUTDOWN_TIMEOUT_SECONDS = 30;
+
    @Getter
    private final AccountService accountService;
    private final ExchangeRateService exchangeRateService;
+   private final PortfolioValuationService portfolioValuationService;
+   @Getter
+   private final AccountMutationPublisher mutationPublisher;
    private final ExecutorService executorService = Executors.newFixedThreadPool(5);
 
    public void registerNewAccount(String ownerId, String ownerName, Map<String, BigDecimal> initialBalances) throws IOException {
@@ -58,30 +67,38 @@ public class CurrencyOperations {
 
    public void transferFunds(String fromAccountId, String toAccountId, String currency, BigDecimal amount) throws IOException {
       Account fromAccount = getAccount(fromAccountId);
-      Account toAccount = getAccount(toAccountId);
+      getAccount(toAccountId);
 
       validateSufficientFunds(fromAccount, currency, amount, fromAccountId);
 
-      synchronized (this) {
-         try {
-            accountService.exchange(fromAccountId, currency, currency, amount);
-
-            Currency targetCurrency = toAccount.getCurrencies().computeIfAbsent(currency, k -> createCurrency(currency));
+      try {
+         accountService.transfer(fromAccountId, toAccountId, currency, amount);
+      } catch (Exception e) {
+         log.error("Fund transfer failed: {}", e.getMessage());
+         throw new FundsErrorException("Fund transfer failed: " + e.getMessage());
+      }
+   }
 
-            targetCurrency.setAmount(targetCurrency.getAmount().add(amount));
-            accountService.updateAccount(toAccount);
+   public PortfolioValuation valuePortfolio(String baseCurrency) throws IOException {
+      return portfolioValuationService.valuePortfolio(baseCurrency);
+   }
 
-            log.info("Transferred {} {} from account {} to account {}",
-                  amount, currency, fromAccountId, toAccountId);
-         } catch (Exception e) {
-            log.error("Fund transfer failed: {}", e.getMessage());
-            throw new FundsErrorException("Fund transfer failed: " + e.getMessage());
-         }
-      }
+   public PortfolioValuation revaluePortfolio(String baseCurrency) throws IOException {
+      return portfolioValuationService.revaluePortfolio(baseCurrency);
    }
 
    public void shutdown() {
       executorService.shutdown();
+      try {
+         if (!executorService.awaitTermination(SHUTDOWN_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+            log.warn("Exchange operations did not finish within {} seconds", SHUTDOWN_TIMEOUT_SECONDS);
+         }
+      } catch (InterruptedException e) {
+         Thread.currentThread().interrupt();
+         log.warn("Interrupted while waiting for exchange operations to finish");
+      }
+      portfolioValuationService.shutdown();
+      mutationPublisher.shutdown();
    }
 
    private Account createAccount(String ownerId, String ownerName, Map<String, BigDecimal> initialBalances) {
@@ -131,10 +148,6 @@ public class CurrencyOperations {
       }
    }
 
-   private Currency createCurrency(String currencyCode) {
-      return createCurrency(currencyCode, BigDecimal.ZERO);
-   }
-
    private Currency createCurrency(String currencyCode, BigDecimal amount) {
       Currency currency = new Currency();
       currency.setCode(currencyCode);